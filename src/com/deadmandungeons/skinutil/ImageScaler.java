@@ -0,0 +1,197 @@
+package com.deadmandungeons.skinutil;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.ScaleMode;
+
+
+/**
+ * Scales small skin images by working directly on their <code>int[]</code> ARGB raster.<br>
+ * Integer ratios are replicated exactly, and all other ratios use index or weight tables
+ * that are computed once per axis before any pixels are touched.
+ * @author Jon
+ */
+final class ImageScaler {
+	
+	private ImageScaler() {}
+	
+	/**
+	 * @param image - The source image to scale
+	 * @param width - The width of the returned image in pixels
+	 * @param height - The height of the returned image in pixels
+	 * @param mode - The ScaleMode to use when the target size is not an integer multiple of the source size
+	 * @return a new {@link BufferedImage#TYPE_INT_ARGB} image of the given size
+	 */
+	static BufferedImage scale(BufferedImage image, int width, int height, ScaleMode mode) {
+		int srcWidth = image.getWidth();
+		int srcHeight = image.getHeight();
+		int[] src = getPixels(image);
+		
+		BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		int[] dst = ((DataBufferInt) scaledImage.getRaster().getDataBuffer()).getData();
+		
+		if (width % srcWidth == 0 && height % srcHeight == 0) {
+			replicate(src, srcWidth, srcHeight, dst, width / srcWidth, height / srcHeight);
+		} else if (mode == ScaleMode.AREA_AVERAGING) {
+			areaAverage(src, srcWidth, srcHeight, dst, width, height);
+		} else {
+			nearestNeighbor(src, srcWidth, srcHeight, dst, width, height);
+		}
+		return scaledImage;
+	}
+	
+	/**
+	 * @param image - The image to read
+	 * @return the ARGB pixels of the given image in row-major order. The backing array is
+	 * returned directly when possible, so the result must not be modified.
+	 */
+	static int[] getPixels(BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		if (image.getType() == BufferedImage.TYPE_INT_ARGB && image.getRaster().getParent() == null) {
+			int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			if (data.length == width * height) {
+				return data;
+			}
+		}
+		return image.getRGB(0, 0, width, height, null, 0, width);
+	}
+	
+	private static void replicate(int[] src, int srcWidth, int srcHeight, int[] dst, int scaleX, int scaleY) {
+		int dstWidth = srcWidth * scaleX;
+		int dstIndex = 0;
+		for (int y = 0; y < srcHeight; ++y) {
+			int rowStart = dstIndex;
+			int srcIndex = y * srcWidth;
+			for (int x = 0; x < srcWidth; ++x) {
+				int pixel = src[srcIndex++];
+				for (int i = 0; i < scaleX; ++i) {
+					dst[dstIndex++] = pixel;
+				}
+			}
+			// The remaining rows for this source row are copies of the first
+			for (int i = 1; i < scaleY; ++i) {
+				System.arraycopy(dst, rowStart, dst, dstIndex, dstWidth);
+				dstIndex += dstWidth;
+			}
+		}
+	}
+	
+	private static void nearestNeighbor(int[] src, int srcWidth, int srcHeight, int[] dst, int dstWidth, int dstHeight) {
+		// Sample the original pixel under the center of each pixel so the edges are kept when shrinking
+		int[] columns = new int[dstWidth];
+		for (int x = 0; x < dstWidth; ++x) {
+			columns[x] = (int) ((2L * x + 1) * srcWidth / (2L * dstWidth));
+		}
+		
+		int dstIndex = 0;
+		int lastRow = -1;
+		for (int y = 0; y < dstHeight; ++y) {
+			int row = (int) ((2L * y + 1) * srcHeight / (2L * dstHeight));
+			if (row == lastRow) {
+				System.arraycopy(dst, dstIndex - dstWidth, dst, dstIndex, dstWidth);
+				dstIndex += dstWidth;
+				continue;
+			}
+			int rowOffset = row * srcWidth;
+			for (int x = 0; x < dstWidth; ++x) {
+				dst[dstIndex++] = src[rowOffset + columns[x]];
+			}
+			lastRow = row;
+		}
+	}
+	
+	private static void areaAverage(int[] src, int srcWidth, int srcHeight, int[] dst, int dstWidth, int dstHeight) {
+		AxisWeights xWeights = new AxisWeights(srcWidth, dstWidth);
+		AxisWeights yWeights = new AxisWeights(srcHeight, dstHeight);
+		double alphaScale = 1.0 / ((long) srcWidth * srcHeight);
+		
+		int dstIndex = 0;
+		for (int y = 0; y < dstHeight; ++y) {
+			int yStart = yWeights.offsets[y];
+			int yEnd = yWeights.offsets[y + 1];
+			for (int x = 0; x < dstWidth; ++x) {
+				int xStart = xWeights.offsets[x];
+				int xEnd = xWeights.offsets[x + 1];
+				
+				// When enlarging, most pixels lie entirely within a single original pixel
+				if (yEnd - yStart == 1 && xEnd - xStart == 1) {
+					dst[dstIndex++] = src[yWeights.indices[yStart] * srcWidth + xWeights.indices[xStart]];
+					continue;
+				}
+				
+				// Channels are accumulated premultiplied so that transparent pixels do not bleed their color
+				long a = 0, r = 0, g = 0, b = 0;
+				for (int j = yStart; j < yEnd; ++j) {
+					int rowOffset = yWeights.indices[j] * srcWidth;
+					int weightY = yWeights.weights[j];
+					for (int i = xStart; i < xEnd; ++i) {
+						int pixel = src[rowOffset + xWeights.indices[i]];
+						int alpha = pixel >>> 24;
+						if (alpha == 0) {
+							continue;
+						}
+						long weight = (long) weightY * xWeights.weights[i];
+						long alphaWeight = weight * alpha;
+						a += alphaWeight;
+						r += alphaWeight * ((pixel >> 16) & 0xFF);
+						g += alphaWeight * ((pixel >> 8) & 0xFF);
+						b += alphaWeight * (pixel & 0xFF);
+					}
+				}
+				
+				if (a == 0) {
+					dst[dstIndex++] = 0;
+				} else {
+					double colorScale = 1.0 / a;
+					int alpha = (int) (a * alphaScale + 0.5);
+					int red = (int) (r * colorScale + 0.5);
+					int green = (int) (g * colorScale + 0.5);
+					int blue = (int) (b * colorScale + 0.5);
+					dst[dstIndex++] = (alpha << 24) | (red << 16) | (green << 8) | blue;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The source pixels and their overlap with each destination pixel along a single axis.
+	 * Both axes are measured in units of <code>1 / (srcSize * dstSize)</code> so every weight is an exact integer,
+	 * and the weights of a single destination pixel always add up to <code>srcSize</code>.
+	 */
+	private static class AxisWeights {
+		
+		private final int[] offsets;
+		private final int[] indices;
+		private final int[] weights;
+		
+		private AxisWeights(int srcSize, int dstSize) {
+			offsets = new int[dstSize + 1];
+			// Each destination pixel overlaps at most ceil(srcSize / dstSize) + 1 source pixels
+			int maxContributors = (srcSize + dstSize - 1) / dstSize + 1;
+			int[] indices = new int[dstSize * maxContributors];
+			int[] weights = new int[indices.length];
+			
+			int count = 0;
+			for (int d = 0; d < dstSize; ++d) {
+				offsets[d] = count;
+				long start = (long) d * srcSize;
+				long end = start + srcSize;
+				for (int s = (int) (start / dstSize); s < srcSize && (long) s * dstSize < end; ++s) {
+					long overlap = Math.min(end, (long) (s + 1) * dstSize) - Math.max(start, (long) s * dstSize);
+					if (overlap > 0) {
+						indices[count] = s;
+						weights[count++] = (int) overlap;
+					}
+				}
+			}
+			offsets[dstSize] = count;
+			
+			this.indices = indices;
+			this.weights = weights;
+		}
+		
+	}
+	
+}
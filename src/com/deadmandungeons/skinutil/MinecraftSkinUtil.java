@@ -1,9 +1,8 @@
 package com.deadmandungeons.skinutil;
 
 import java.awt.Graphics;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URL;
@@ -149,8 +148,48 @@ public class MinecraftSkinUtil {
 	public static SkinImage getPlayerSkinPosition(MinecraftProfile profile, SkinPosition position, int size) throws IllegalArgumentException {
 		validateSize(size);
 		
-		SkinTexture skin = getPlayerSkin(profile);
+		return new SkinImage(getSkinPosition(getPlayerSkin(profile), position, size));
+	}
+	
+	/**
+	 * Useful when several images are created from the same skin, since the texture only has to be retrieved once
+	 * with {@link #getPlayerSkin(MinecraftProfile)}.
+	 * @param skin - The SkinTexture of the skin to be shown
+	 * @param position - The SkinPosition describing the orientation of SkinPart's to be combined in the returned SkinImage
+	 * @param size - The size multiplier of a single pixel in the returned image
+	 * @return a SkinImage showing the given position of the given skin texture at <code>size</code> scale
+	 * @throws IllegalArgumentException if the given size is less than 1 or greater than 50
+	 */
+	public static SkinImage getSkinTexturePosition(SkinTexture skin, SkinPosition position, int size) throws IllegalArgumentException {
+		validateSize(size);
+		
+		return new SkinImage(getSkinPosition(skin, position, size));
+	}
+	
+	/**
+	 * Unlike {@link #getPlayerSkinPosition(MinecraftProfile, SkinPosition, int)}, the returned image can be any size.
+	 * When the given dimensions are an exact multiple of the original position size, the result is identical to
+	 * using the equivalent size multiplier.
+	 * @param profile - The Minecraft profile of the player who's skin should be retrieved
+	 * @param position - The SkinPosition describing the orientation of SkinPart's to be combined in the returned SkinImage
+	 * @param width - The width of the returned image in pixels
+	 * @param height - The height of the returned image in pixels
+	 * @param mode - The ScaleMode to use when the given dimensions are not a multiple of the original position size
+	 * @return a SkinImage showing the given position of the player's currently equipped skin at <code>width</code> x <code>height</code>
+	 * @throws IllegalArgumentException if the given width or height is less than 1 or greater than 50 times the original position size,
+	 * or if the given mode is <code>null</code>
+	 */
+	public static SkinImage getPlayerSkinPosition(MinecraftProfile profile, SkinPosition position, int width, int height, ScaleMode mode)
+			throws IllegalArgumentException {
+		validateDimensions(width, height, mode);
 		
+		BufferedImage positionImage = getSkinPosition(getPlayerSkin(profile), position, 1);
+		validateMaxDimensions(positionImage, width, height);
+		
+		return new SkinImage(ImageScaler.scale(positionImage, width, height, mode));
+	}
+	
+	static BufferedImage getSkinPosition(SkinTexture skin, SkinPosition position, int size) {
 		int width = position.getImageWitdh(skin.slimSkin) * size;
 		int height = position.getImageHeight(skin.slimSkin) * size;
 		BufferedImage positionImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -162,7 +201,8 @@ public class MinecraftSkinUtil {
 			int offsetY = partPosition.getOffsetY(skin.slimSkin);
 			graphics.drawImage(partImage, offsetX * size, offsetY * size, null);
 		}
-		return new SkinImage(positionImage);
+		graphics.dispose();
+		return positionImage;
 	}
 	
 	
@@ -190,7 +230,49 @@ public class MinecraftSkinUtil {
 		return new SkinImage(getSkinPart(getPlayerSkin(profile), part, size));
 	}
 	
-	private static BufferedImage getSkinPart(SkinTexture skin, SkinPart part, int size) throws IllegalArgumentException {
+	/**
+	 * Unlike {@link #getPlayerSkinPart(MinecraftProfile, SkinPart, int)}, the returned image can be any size.
+	 * When the given dimensions are an exact multiple of the original part size, the result is identical to
+	 * using the equivalent size multiplier.
+	 * @param profile - The Minecraft profile of the player who's skin should be retrieved
+	 * @param part - The desired SkinPart to be shown in the returned SkinImage
+	 * @param width - The width of the returned image in pixels
+	 * @param height - The height of the returned image in pixels
+	 * @param mode - The ScaleMode to use when the given dimensions are not a multiple of the original part size
+	 * @return a SkinImage showing the given part of the player's currently equipped skin at <code>width</code> x <code>height</code>
+	 * @throws IllegalArgumentException if the given width or height is less than 1 or greater than 50 times the original part size,
+	 * or if the given mode is <code>null</code>
+	 */
+	public static SkinImage getPlayerSkinPart(MinecraftProfile profile, SkinPart part, int width, int height, ScaleMode mode)
+			throws IllegalArgumentException {
+		validateDimensions(width, height, mode);
+		
+		return getSkinTexturePart(getPlayerSkin(profile), part, width, height, mode);
+	}
+	
+	/**
+	 * Useful when several images are created from the same skin, since the texture only has to be retrieved once
+	 * with {@link #getPlayerSkin(MinecraftProfile)}.
+	 * @param skin - The SkinTexture of the skin to be shown
+	 * @param part - The desired SkinPart to be shown in the returned SkinImage
+	 * @param width - The width of the returned image in pixels
+	 * @param height - The height of the returned image in pixels
+	 * @param mode - The ScaleMode to use when the given dimensions are not a multiple of the original part size
+	 * @return a SkinImage showing the given part of the given skin texture at <code>width</code> x <code>height</code>
+	 * @throws IllegalArgumentException if the given width or height is less than 1 or greater than 50 times the original part size,
+	 * or if the given mode is <code>null</code>
+	 */
+	public static SkinImage getSkinTexturePart(SkinTexture skin, SkinPart part, int width, int height, ScaleMode mode)
+			throws IllegalArgumentException {
+		validateDimensions(width, height, mode);
+		
+		BufferedImage partImage = getSkinPart(skin, part, 1);
+		validateMaxDimensions(partImage, width, height);
+		
+		return new SkinImage(ImageScaler.scale(partImage, width, height, mode));
+	}
+	
+	static BufferedImage getSkinPart(SkinTexture skin, SkinPart part, int size) throws IllegalArgumentException {
 		BufferedImage image = skin.getImage();
 		
 		ImageArea partArea = part.area;
@@ -206,19 +288,20 @@ public class MinecraftSkinUtil {
 			overlayArea = part.slimSkinPart.overlayArea;
 		}
 		
-		// Get skin part image from texture image as the base layer and set non-opaque pixels to black
-		BufferedImage partImage = image.getSubimage(partArea.x, partArea.y, partArea.w, partArea.h);
-		for (int x = 0; x < partImage.getWidth(); ++x) {
-			for (int y = 0; y < partImage.getHeight(); ++y) {
-				int pixel = partImage.getRGB(x, y);
-				if (!isOpaque(pixel)) {
-					partImage.setRGB(x, y, 0xFF000000);
-				}
+		// Copy skin part pixels from texture image as the base layer and set non-opaque pixels to black.
+		// The texture image itself must never be drawn on since the default skins are shared.
+		BufferedImage partImage = new BufferedImage(partArea.w, partArea.h, BufferedImage.TYPE_INT_ARGB);
+		int[] pixels = ((DataBufferInt) partImage.getRaster().getDataBuffer()).getData();
+		image.getRGB(partArea.x, partArea.y, partArea.w, partArea.h, pixels, 0, partArea.w);
+		for (int i = 0; i < pixels.length; ++i) {
+			if (!isOpaque(pixels[i])) {
+				pixels[i] = 0xFF000000;
 			}
 		}
 		
-		// Draw skin part overlay layer if applicable
-		if (skin.hasOverlay(overlayArea)) {
+		// Draw skin part overlay layer if applicable.
+		// Parts without a separate overlay (right arm) use their own area which is already drawn as the base layer.
+		if (skin.hasOverlay(overlayArea) && (overlayArea.x != partArea.x || overlayArea.y != partArea.y)) {
 			BufferedImage overlayImage = image.getSubimage(overlayArea.x, overlayArea.y, overlayArea.w, overlayArea.h);
 			
 			Graphics graphics = partImage.getGraphics();
@@ -228,36 +311,26 @@ public class MinecraftSkinUtil {
 		
 		// Small skins have the right arm and leg parts flipped for the left side
 		if (useSmallSkinPart) {
-			partImage = flipImage(partImage);
+			flipPixels(pixels, partArea.w, partArea.h);
 		}
 		
 		// Finally resize the image if needed
 		if (size > 1) {
-			BufferedImage enlargedPartImage = new BufferedImage(size * partArea.w, size * partArea.h, image.getType());
-			for (int x = 0; x < partArea.w; ++x) {
-				for (int y = 0; y < partArea.h; ++y) {
-					int pixel = partImage.getRGB(x, y);
-					drawSquare(enlargedPartImage, x * size, y * size, size, pixel);
-				}
-			}
-			partImage = enlargedPartImage;
+			partImage = ImageScaler.scale(partImage, size * partArea.w, size * partArea.h, ScaleMode.NEAREST_NEIGHBOR);
 		}
 		
 		return partImage;
 	}
 	
 	
-	private static BufferedImage flipImage(BufferedImage image) {
-		AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
-		tx.translate(-(image.getWidth(null)), 0);
-		AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-		return op.filter(image, null);
-	}
-	
-	private static void drawSquare(BufferedImage image, int x, int y, int size, int pixel) {
-		for (int px = 0; px < size; ++px) {
-			for (int py = 0; py < size; ++py) {
-				image.setRGB(x + px, y + py, pixel);
+	private static void flipPixels(int[] pixels, int width, int height) {
+		for (int y = 0; y < height; ++y) {
+			int left = y * width;
+			int right = left + width - 1;
+			while (left < right) {
+				int pixel = pixels[left];
+				pixels[left++] = pixels[right];
+				pixels[right--] = pixel;
 			}
 		}
 	}
@@ -272,6 +345,40 @@ public class MinecraftSkinUtil {
 		}
 	}
 	
+	private static void validateDimensions(int width, int height, ScaleMode mode) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("width and height cannot be less than 1");
+		}
+		if (mode == null) {
+			throw new IllegalArgumentException("mode cannot be null");
+		}
+	}
+	
+	private static void validateMaxDimensions(BufferedImage original, int width, int height) {
+		if (width > original.getWidth() * 50 || height > original.getHeight() * 50) {
+			throw new IllegalArgumentException("width and height cannot be greater than 50 times the original size");
+		}
+	}
+	
+	
+	/**
+	 * The algorithm used to scale a skin image to a size that is not an exact multiple of its original size.
+	 * Sizes that are an exact multiple are always scaled by replicating each pixel regardless of the ScaleMode.
+	 * @author Jon
+	 */
+	public static enum ScaleMode {
+		/**
+		 * Each pixel takes the color of the single closest original pixel. Keeps the sharp pixelated
+		 * look of the skin, but some rows and columns will be slightly wider than others.
+		 */
+		NEAREST_NEIGHBOR,
+		/**
+		 * Each pixel takes the average color of all original pixels it covers, weighted by how much of each
+		 * it covers. Best suited for small thumbnails where nearest neighbor would drop entire rows and columns.
+		 */
+		AREA_AVERAGING;
+	}
+	
 	
 	/**
 	 * A simple wrapper to a player skin PNG {@link BufferedImage} that includes helper methods
@@ -282,7 +389,7 @@ public class MinecraftSkinUtil {
 		
 		private final BufferedImage image;
 		
-		private SkinImage(BufferedImage image) {
+		SkinImage(BufferedImage image) {
 			this.image = image;
 		}
 		
@@ -331,7 +438,7 @@ public class MinecraftSkinUtil {
 		private final boolean largeSkin;
 		private Boolean hasOverlay;
 		
-		private SkinTexture(BufferedImage image, boolean slimSkin, boolean defaultSkin) {
+		SkinTexture(BufferedImage image, boolean slimSkin, boolean defaultSkin) {
 			super(image);
 			if (image.getWidth() != 64 || (image.getHeight() != 32 && image.getHeight() != 64)) {
 				throw new IllegalArgumentException("invalid image dimensions");
@@ -656,7 +763,12 @@ public class MinecraftSkinUtil {
 		
 	}
 	
-	private static enum DefaultSkinPosition implements SkinPosition {
+	/**
+	 * An enum containing the skin positions used by {@link MinecraftSkinUtil#getPlayerSkinFront(MinecraftProfile, int)} and
+	 * the other side methods, for use with {@link MinecraftSkinUtil#getSkinTexturePosition(SkinTexture, SkinPosition, int)}
+	 * @author Jon
+	 */
+	public static enum DefaultSkinPosition implements SkinPosition {
 		FRONT(
 				new PartPosition(SkinPart.HEAD_FRONT, 4, 0, 3, 0),
 				new PartPosition(SkinPart.ARM_LEFT_FRONT, 12, 8, 11, 8),
@@ -0,0 +1,24 @@
+package com.deadmandungeons.skinutil.http;
+
+import java.util.UUID;
+
+import com.mojang.api.profiles.minecraft.MinecraftProfile;
+
+
+/**
+ * A simple interface used by {@link SkinAvatarServer} to find the Minecraft profile of a player.<br>
+ * With AccountsClient this is typically <code>repository::findProfileById</code>, but any source
+ * of profiles can be used such as a local cache or a stub for testing.
+ * @author Jon
+ */
+@FunctionalInterface
+public interface ProfileLookup {
+	
+	/**
+	 * @param id - The unique ID of the player who's profile should be found
+	 * @return the MinecraftProfile of the player, or <code>null</code> if no player exists with the given ID
+	 * @throws Exception if the profile could not be retrieved
+	 */
+	MinecraftProfile findProfileById(UUID id) throws Exception;
+	
+}
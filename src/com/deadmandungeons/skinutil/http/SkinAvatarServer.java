@@ -0,0 +1,400 @@
+package com.deadmandungeons.skinutil.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.deadmandungeons.skinutil.MinecraftSkinUtil;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.DefaultSkinPosition;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.ScaleMode;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinImage;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinPart;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinTexture;
+import com.mojang.api.profiles.minecraft.MinecraftProfile;
+import com.mojang.api.profiles.minecraft.MinecraftProfile.Skin;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * A lightweight HTTP server for player skin avatars built on the JDK {@link HttpServer}. The following paths are served as PNG images:
+ * <ul>
+ * <li><code>/head/{uuid}/{size}</code> - The front of the player's head that is <code>size</code> x <code>size</code> pixels (1 to 400)</li>
+ * <li><code>/body/{uuid}/{view}/{size}</code> - The <code>front</code>, <code>back</code>, <code>left</code>, <code>right</code>,
+ * <code>top</code>, or <code>bottom</code> position of the player's skin at <code>size</code> scale (1 to 50)</li>
+ * </ul>
+ * The ETag of every image is derived from the player's skin texture hash, so clients that send a matching
+ * <code>If-None-Match</code> header receive a <code>304 Not Modified</code> response without any image being rendered.
+ * If the skin texture could not be downloaded, the default skin is shown with a <code>no-cache</code> response
+ * so that the player's actual skin is shown as soon as it is available.
+ * Rendered images are kept in a bounded cache of encoded PNG data which is written directly to the response.<br>
+ * The JDK HttpServer only disables Nagle's algorithm when the <code>sun.net.httpserver.nodelay</code> system property is
+ * <code>true</code>. Without it, small responses can be delayed by tens of milliseconds.
+ * @author Jon
+ */
+public class SkinAvatarServer {
+	
+	private static final Logger LOGGER = Logger.getLogger(SkinAvatarServer.class.getName());
+	
+	private static final int MAX_HEAD_SIZE = 8 * 50;
+	
+	private final ProfileLookup profileLookup;
+	private final HttpServer server;
+	private final ThreadPoolExecutor executor;
+	private final AtomicInteger pendingRequests = new AtomicInteger();
+	private final int maxPendingRequests;
+	private final ImageCache cache;
+	private final String cacheControl;
+	
+	/**
+	 * Equivalent to {@link #SkinAvatarServer(InetSocketAddress, ProfileLookup, int, int, int)
+	 * SkinAvatarServer(address, profileLookup, processors * 2, 1024, 300)}
+	 * @param address - The address the server should be bound to
+	 * @param profileLookup - The ProfileLookup used to find the profile of each requested player
+	 * @throws IOException if the server could not be bound to the given address
+	 */
+	public SkinAvatarServer(InetSocketAddress address, ProfileLookup profileLookup) throws IOException {
+		this(address, profileLookup, Runtime.getRuntime().availableProcessors() * 2, 1024, 300);
+	}
+	
+	/**
+	 * Once the worker threads are busy, up to <code>workerThreads * 16</code> requests are queued.
+	 * Beyond that, requests are answered with <code>503 Service Unavailable</code> until the load has dropped.
+	 * @param address - The address the server should be bound to
+	 * @param profileLookup - The ProfileLookup used to find the profile of each requested player
+	 * @param workerThreads - The maximum number of requests that can be handled at the same time
+	 * @param cacheSize - The maximum number of rendered images to keep in memory
+	 * @param maxAge - The number of seconds clients may use an image before checking if it has changed
+	 * @throws IOException if the server could not be bound to the given address
+	 * @throws IllegalArgumentException if workerThreads or cacheSize is less than 1, or if maxAge is negative
+	 */
+	public SkinAvatarServer(InetSocketAddress address, ProfileLookup profileLookup, int workerThreads, int cacheSize, int maxAge)
+			throws IOException, IllegalArgumentException {
+		if (workerThreads < 1 || cacheSize < 1 || maxAge < 0) {
+			throw new IllegalArgumentException("workerThreads and cacheSize cannot be less than 1 and maxAge cannot be negative");
+		}
+		this.profileLookup = profileLookup;
+		cache = new ImageCache(cacheSize);
+		cacheControl = "public, max-age=" + maxAge;
+		
+		// Requests beyond the pending limit are still queued so they can be answered with 503, but they are quick to handle.
+		// Only once the queue itself is full are requests rejected, in which case the connection is closed by the HttpServer.
+		maxPendingRequests = workerThreads * 16;
+		executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxPendingRequests * 2),
+				new WorkerThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+		
+		server = HttpServer.create(address, 0);
+		server.createContext("/head/", (exchange) -> handle(exchange, SkinAvatarServer::parseHead, SkinAvatarServer::renderHead));
+		server.createContext("/body/", (exchange) -> handle(exchange, SkinAvatarServer::parseBody, SkinAvatarServer::renderBody));
+		server.setExecutor(this::dispatch);
+	}
+	
+	/**
+	 * Start accepting requests in a background thread
+	 */
+	public void start() {
+		server.start();
+	}
+	
+	/**
+	 * Stop accepting requests and wait up to <code>delay</code> seconds for current requests to finish
+	 * @param delay - The maximum number of seconds to wait for current requests to finish
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+	}
+	
+	/**
+	 * @return the address the server is bound to. Useful when the server was created with port 0.
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+	
+	
+	private void dispatch(Runnable exchange) {
+		pendingRequests.incrementAndGet();
+		try {
+			executor.execute(() -> {
+				try {
+					exchange.run();
+				} finally {
+					pendingRequests.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			pendingRequests.decrementAndGet();
+			throw e;
+		}
+	}
+	
+	private void handle(HttpExchange exchange, Function<String[], AvatarRequest> parser,
+			BiFunction<SkinTexture, AvatarRequest, SkinImage> renderer) throws IOException {
+		try {
+			if (pendingRequests.get() > maxPendingRequests) {
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				sendEmpty(exchange, 503);
+				return;
+			}
+			
+			String method = exchange.getRequestMethod();
+			if (!method.equals("GET") && !method.equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				sendEmpty(exchange, 405);
+				return;
+			}
+			
+			// Remove the context path and split the remaining segments, e.g. "/head/{uuid}/{size}"
+			String path = exchange.getRequestURI().getPath();
+			String contextPath = exchange.getHttpContext().getPath();
+			String[] args = path.substring(contextPath.length()).split("/", -1);
+			
+			AvatarRequest request = parser.apply(args);
+			if (request == null) {
+				sendEmpty(exchange, 404);
+				return;
+			}
+			
+			MinecraftProfile profile;
+			try {
+				profile = profileLookup.findProfileById(request.id);
+			} catch (Exception e) {
+				LOGGER.log(Level.FINE, "Failed to find profile for " + request.id, e);
+				sendEmpty(exchange, 502);
+				return;
+			}
+			if (profile == null) {
+				sendEmpty(exchange, 404);
+				return;
+			}
+			
+			// An ETag is only ever sent for an image rendered from the texture it names,
+			// so a client that has this ETag already has the image for the player's current skin
+			String etag = "\"" + getTextureKey(profile) + "\"";
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("ETag", etag);
+			headers.set("Cache-Control", cacheControl);
+			
+			if (matchesETag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+				sendEmpty(exchange, 304);
+				return;
+			}
+			
+			byte[] image = cache.get(etag + contextPath + request.key);
+			if (image == null) {
+				SkinTexture skin = MinecraftSkinUtil.getPlayerSkin(profile);
+				String skinETag = skin.isDefaultSkin() ? "\"" + getDefaultTextureKey(skin.isSlimSkin()) + "\"" : etag;
+				if (!skinETag.equals(etag)) {
+					// The player's skin could not be downloaded so the default skin is shown until it can be
+					headers.set("ETag", skinETag);
+					headers.set("Cache-Control", "no-cache");
+				}
+				
+				String cacheKey = skinETag + contextPath + request.key;
+				image = cache.get(cacheKey);
+				if (image == null) {
+					image = renderer.apply(skin, request).toByteArray();
+					if (image.length == 0) {
+						sendEmpty(exchange, 500);
+						return;
+					}
+					cache.put(cacheKey, image);
+				}
+			}
+			
+			headers.set("Content-Type", "image/png");
+			if (method.equals("HEAD")) {
+				headers.set("Content-Length", Integer.toString(image.length));
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				// The cached array is written as is with a fixed length, so it is never copied or chunked
+				exchange.sendResponseHeaders(200, image.length);
+				try (OutputStream body = exchange.getResponseBody()) {
+					body.write(image);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "An unexpected error occured while handling " + exchange.getRequestURI(), e);
+			sendEmpty(exchange, 500);
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	private static AvatarRequest parseHead(String[] args) {
+		if (args.length != 2) {
+			return null;
+		}
+		UUID id = parseId(args[0]);
+		int size = parseSize(args[1], MAX_HEAD_SIZE);
+		return id != null && size > 0 ? new AvatarRequest(id, null, size) : null;
+	}
+	
+	private static SkinImage renderHead(SkinTexture skin, AvatarRequest request) {
+		// Shrinking the 8x8 face averages pixels together, otherwise pixels are kept sharp
+		ScaleMode mode = request.size < 8 ? ScaleMode.AREA_AVERAGING : ScaleMode.NEAREST_NEIGHBOR;
+		return MinecraftSkinUtil.getSkinTexturePart(skin, SkinPart.HEAD_FRONT, request.size, request.size, mode);
+	}
+	
+	private static AvatarRequest parseBody(String[] args) {
+		if (args.length != 3) {
+			return null;
+		}
+		UUID id = parseId(args[0]);
+		DefaultSkinPosition view = parseView(args[1]);
+		int size = parseSize(args[2], 50);
+		return id != null && view != null && size > 0 ? new AvatarRequest(id, view, size) : null;
+	}
+	
+	private static SkinImage renderBody(SkinTexture skin, AvatarRequest request) {
+		return MinecraftSkinUtil.getSkinTexturePosition(skin, request.view, request.size);
+	}
+	
+	
+	private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+		exchange.sendResponseHeaders(status, -1);
+	}
+	
+	private static UUID parseId(String id) {
+		try {
+			if (id.length() == 32) {
+				// Mojang API style UUID without dashes
+				id = id.replaceFirst("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})", "$1-$2-$3-$4-$5");
+			}
+			return id.length() == 36 ? UUID.fromString(id) : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	private static DefaultSkinPosition parseView(String view) {
+		try {
+			return DefaultSkinPosition.valueOf(view.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	private static int parseSize(String size, int max) {
+		try {
+			int value = Integer.parseInt(size);
+			return value >= 1 && value <= max ? value : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Identifies the skin texture the player's images will be rendered from without having to download it.
+	 * Custom skins use the hash at the end of the texture URL, and players without a skin use the default skin
+	 * that {@link MinecraftSkinUtil#getPlayerSkin(MinecraftProfile)} would select.
+	 */
+	private static String getTextureKey(MinecraftProfile profile) {
+		Optional<Skin> skin = profile.getTextures().getSkin();
+		if (skin.isPresent()) {
+			String url = skin.get().getUrl();
+			String hash = url.substring(url.lastIndexOf('/') + 1);
+			return skin.get().isSlimModel() ? hash + "-slim" : hash;
+		}
+		return getDefaultTextureKey((profile.getId().hashCode() & 1) != 0);
+	}
+	
+	private static String getDefaultTextureKey(boolean slim) {
+		return slim ? "alex" : "steve";
+	}
+	
+	private static boolean matchesETag(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String value : ifNoneMatch.split(",")) {
+			value = value.trim();
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (value.equals(etag) || value.equals("*")) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	private static class AvatarRequest {
+		
+		private final UUID id;
+		private final DefaultSkinPosition view;
+		private final int size;
+		private final String key;
+		
+		private AvatarRequest(UUID id, DefaultSkinPosition view, int size) {
+			this.id = id;
+			this.view = view;
+			this.size = size;
+			key = view != null ? view.name() + "/" + size : Integer.toString(size);
+		}
+		
+	}
+	
+	/**
+	 * A least recently used cache of encoded PNG images. The image arrays are shared
+	 * between requests, so they must never be modified once cached.
+	 */
+	private static class ImageCache {
+		
+		private final Map<String, byte[]> images;
+		
+		private ImageCache(int maxSize) {
+			images = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+				
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+					return size() > maxSize;
+				}
+				
+			};
+		}
+		
+		private synchronized byte[] get(String key) {
+			return images.get(key);
+		}
+		
+		private synchronized void put(String key, byte[] image) {
+			images.put(key, image);
+		}
+		
+	}
+	
+	private static class WorkerThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "SkinAvatarServer-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,285 @@
+package com.deadmandungeons.skinutil;
+
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.DefaultSkinPosition;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.ScaleMode;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinImage;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinPart;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinTexture;
+import com.deadmandungeons.skinutil.http.SkinAvatarServer;
+import com.mojang.api.profiles.minecraft.MinecraftProfile;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * A multi-threaded load driver for the full fetch, render and encode path of a skin image.
+ * Every {@link TestSkin} texture is served by a local stub texture server, and each request retrieves the texture of a
+ * stub profile with {@link MinecraftSkinUtil#getPlayerSkin}, renders the front position and a scaled head through the
+ * public API, and encodes both as PNG. The p50 and p99 latency and the overall throughput are printed once all threads finish,
+ * and every rendered image is checked against a single threaded render so that concurrency cannot change any pixels.<br>
+ * The serving path is measured the same way with head requests of random sizes to a {@link SkinAvatarServer}
+ * that looks up the same stub profiles.<br>
+ * These tests are skipped unless <code>-Dload.test=true</code> is given. The number of threads, the duration in seconds,
+ * the render size, and the avatar server cache size can be changed with <code>-Dload.threads</code>, <code>-Dload.seconds</code>,
+ * <code>-Dload.size</code>, and <code>-Dload.cache</code>. Include <code>-Dsun.net.httpserver.nodelay=true</code> so that the
+ * latency of the local servers is not dominated by delayed TCP acknowledgements.
+ * @author Jon
+ */
+public class RenderLoadTest {
+	
+	private static final int THREADS = Integer.getInteger("load.threads", Runtime.getRuntime().availableProcessors() * 2);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 10);
+	private static final int SIZE = Integer.getInteger("load.size", 8);
+	// Not a multiple of 8 so that the head is scaled by the ImageScaler
+	private static final int HEAD_SIZE = 20;
+	private static final int CACHE_SIZE = Integer.getInteger("load.cache", 1024);
+	
+	@Test
+	public void testFetchRenderEncode() throws Exception {
+		assumeTrue("load test is only run with -Dload.test=true", Boolean.getBoolean("load.test"));
+		
+		HttpServer textureServer = startTextureServer();
+		try {
+			String baseUrl = getBaseUrl(textureServer.getAddress());
+			TestSkin[] skins = TestSkin.values();
+			
+			Map<TestSkin, MinecraftProfile> profiles = new EnumMap<>(TestSkin.class);
+			Map<TestSkin, int[][]> expected = new EnumMap<>(TestSkin.class);
+			for (TestSkin skin : skins) {
+				profiles.put(skin, TestProfiles.create(new UUID(0, skin.ordinal()), baseUrl + skin.name(), skin.isSlim()));
+				expected.put(skin, getPixels(render(skin.load())));
+			}
+			
+			measure("fetch+render+encode", (index) -> {
+				TestSkin skin = skins[index % skins.length];
+				if (!Arrays.deepEquals(expected.get(skin), getPixels(fetchRenderEncode(profiles.get(skin))))) {
+					fail(skin + " rendered differently under load");
+				}
+			});
+		} finally {
+			textureServer.stop(0);
+		}
+	}
+	
+	@Test
+	public void testAvatarServer() throws Exception {
+		assumeTrue("load test is only run with -Dload.test=true", Boolean.getBoolean("load.test"));
+		
+		HttpServer textureServer = startTextureServer();
+		SkinAvatarServer avatarServer = null;
+		try {
+			String baseUrl = getBaseUrl(textureServer.getAddress());
+			TestSkin[] skins = TestSkin.values();
+			
+			Map<UUID, MinecraftProfile> profiles = new HashMap<>();
+			for (TestSkin skin : skins) {
+				UUID id = new UUID(0, skin.ordinal());
+				profiles.put(id, TestProfiles.create(id, baseUrl + skin.name(), skin.isSlim()));
+			}
+			
+			InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+			avatarServer = new SkinAvatarServer(address, profiles::get, THREADS, CACHE_SIZE, 300);
+			avatarServer.start();
+			String avatarUrl = getBaseUrl(avatarServer.getAddress());
+			
+			measure("avatar server", (index) -> {
+				// Random head sizes make requests both hit and miss the cache, depending on its size
+				int size = ThreadLocalRandom.current().nextInt(1, 401);
+				URL url = new URL(avatarUrl + "head/" + new UUID(0, index % skins.length) + "/" + size);
+				HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+				if (connection.getResponseCode() != 200) {
+					fail(url + " responded with " + connection.getResponseCode());
+				}
+				try (InputStream in = connection.getInputStream()) {
+					if (readAll(in).length == 0) {
+						fail(url + " responded with an empty image");
+					}
+				}
+			});
+		} finally {
+			if (avatarServer != null) {
+				avatarServer.stop(0);
+			}
+			textureServer.stop(0);
+		}
+	}
+	
+	
+	/**
+	 * Run the given request from {@link #THREADS} threads for {@link #SECONDS} seconds after a warm up,
+	 * and print the p50 and p99 latency and the overall throughput
+	 */
+	private static void measure(String name, LoadRequest request) throws Exception {
+		// Warm up the JIT and the ImageIO plugins before measuring
+		long warmupEnd = System.nanoTime() + 2_000_000_000L;
+		for (int i = 0; System.nanoTime() < warmupEnd; ++i) {
+			request.run(i);
+		}
+		
+		List<long[]> workerLatencies = new ArrayList<>();
+		int count = 0;
+		long elapsed;
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<long[]>> results = new ArrayList<>();
+			long start = System.nanoTime();
+			long end = start + SECONDS * 1_000_000_000L;
+			for (int i = 0; i < THREADS; ++i) {
+				int offset = i;
+				results.add(executor.submit((Callable<long[]>) () -> runWorker(request, offset, end)));
+			}
+			
+			for (Future<long[]> result : results) {
+				long[] latencies = result.get();
+				workerLatencies.add(latencies);
+				count += latencies.length;
+			}
+			elapsed = System.nanoTime() - start;
+		} finally {
+			// Stop the remaining workers when one of them has failed
+			executor.shutdownNow();
+		}
+		
+		long[] latencies = new long[count];
+		int index = 0;
+		for (long[] worker : workerLatencies) {
+			System.arraycopy(worker, 0, latencies, index, worker.length);
+			index += worker.length;
+		}
+		Arrays.sort(latencies);
+		
+		System.out.println(String.format("%s: %d threads, %d requests in %.1fs, %.1f req/s, p50 %.3fms, p99 %.3fms", name, THREADS,
+				count, elapsed / 1e9, count / (elapsed / 1e9), percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6));
+	}
+	
+	private static long[] runWorker(LoadRequest request, int offset, long end) throws Exception {
+		long[] latencies = new long[1024];
+		int count = 0;
+		for (int i = offset; System.nanoTime() < end && !Thread.currentThread().isInterrupted(); ++i) {
+			long start = System.nanoTime();
+			request.run(i);
+			long latency = System.nanoTime() - start;
+			
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latency;
+		}
+		return Arrays.copyOf(latencies, count);
+	}
+	
+	private static SkinImage[] fetchRenderEncode(MinecraftProfile profile) throws IOException {
+		SkinTexture texture = MinecraftSkinUtil.getPlayerSkin(profile);
+		// getPlayerSkin falls back to a default skin when the texture cannot be downloaded
+		if (texture.isDefaultSkin()) {
+			throw new IOException("failed to download the skin of " + profile.getId());
+		}
+		SkinImage[] images = render(texture);
+		for (SkinImage image : images) {
+			if (image.toByteArray().length == 0) {
+				throw new IOException("failed to encode the skin of " + profile.getId());
+			}
+		}
+		return images;
+	}
+	
+	private static SkinImage[] render(SkinTexture texture) {
+		return new SkinImage[] { MinecraftSkinUtil.getSkinTexturePosition(texture, DefaultSkinPosition.FRONT, SIZE),
+				MinecraftSkinUtil.getSkinTexturePart(texture, SkinPart.HEAD_FRONT, HEAD_SIZE, HEAD_SIZE, ScaleMode.AREA_AVERAGING) };
+	}
+	
+	private static int[][] getPixels(SkinImage[] images) {
+		int[][] pixels = new int[images.length][];
+		for (int i = 0; i < images.length; ++i) {
+			pixels[i] = TestSkin.getPixels(images[i].getImage());
+		}
+		return pixels;
+	}
+	
+	private static long percentile(long[] sorted, double percentile) {
+		return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+	}
+	
+	/**
+	 * Serve the texture of every TestSkin at <code>/{name}</code> from memory
+	 */
+	private static HttpServer startTextureServer() throws IOException {
+		Map<String, byte[]> textures = new HashMap<>();
+		for (TestSkin skin : TestSkin.values()) {
+			try (InputStream in = skin.getUrl().openStream()) {
+				textures.put("/" + skin.name(), readAll(in));
+			}
+		}
+		
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", (exchange) -> {
+			byte[] texture = textures.get(exchange.getRequestURI().getPath());
+			if (texture == null) {
+				exchange.sendResponseHeaders(404, -1);
+			} else {
+				exchange.getResponseHeaders().set("Content-Type", "image/png");
+				exchange.sendResponseHeaders(200, texture.length);
+				try (OutputStream body = exchange.getResponseBody()) {
+					body.write(texture);
+				}
+			}
+			exchange.close();
+		});
+		server.setExecutor(Executors.newFixedThreadPool(THREADS, (runnable) -> {
+			Thread thread = new Thread(runnable, "texture-server");
+			thread.setDaemon(true);
+			return thread;
+		}));
+		server.start();
+		return server;
+	}
+	
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int read; (read = in.read(buffer)) != -1;) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+	
+	private static String getBaseUrl(InetSocketAddress address) {
+		return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+	}
+	
+	
+	private static interface LoadRequest {
+		
+		/**
+		 * @param index - The number of the request, which differs between consecutive requests of the same thread
+		 */
+		void run(int index) throws Exception;
+		
+	}
+	
+}
@@ -0,0 +1,164 @@
+package com.deadmandungeons.skinutil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.DefaultSkinPosition;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.ScaleMode;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinPart;
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinTexture;
+
+
+/**
+ * Compares every {@link SkinPart} and {@link DefaultSkinPosition} rendered from each {@link TestSkin}
+ * against the golden images in <code>test/golden</code>, so that changes to the rendering code cannot
+ * silently change any pixels.<br>
+ * When a change to the rendered output is intended, run the tests with <code>-Dgolden.update=true</code>
+ * to rewrite the golden images and review the differences before committing them.
+ * @author Jon
+ */
+@RunWith(Parameterized.class)
+public class SkinRenderGoldenTest {
+	
+	private static final boolean UPDATE_GOLDEN = Boolean.getBoolean("golden.update");
+	
+	private final TestSkin skin;
+	
+	public SkinRenderGoldenTest(TestSkin skin) {
+		this.skin = skin;
+	}
+	
+	@Parameters(name = "{0}")
+	public static List<Object[]> skins() {
+		List<Object[]> skins = new ArrayList<>();
+		for (TestSkin skin : TestSkin.values()) {
+			skins.add(new Object[] { skin });
+		}
+		return skins;
+	}
+	
+	@Test
+	public void testSkinParts() throws IOException {
+		SkinTexture texture = skin.load();
+		List<String> failures = new ArrayList<>();
+		for (SkinPart part : SkinPart.values()) {
+			checkGolden("part/" + part.name(), MinecraftSkinUtil.getSkinPart(texture, part, 1), failures);
+		}
+		assertNoFailures(failures);
+	}
+	
+	@Test
+	public void testSkinPositions() throws IOException {
+		SkinTexture texture = skin.load();
+		List<String> failures = new ArrayList<>();
+		for (DefaultSkinPosition position : DefaultSkinPosition.values()) {
+			checkGolden("position/" + position.name(), MinecraftSkinUtil.getSkinPosition(texture, position, 1), failures);
+		}
+		assertNoFailures(failures);
+	}
+	
+	@Test
+	public void testScaledHead() throws IOException {
+		BufferedImage head = MinecraftSkinUtil.getSkinPart(skin.load(), SkinPart.HEAD_FRONT, 1);
+		List<String> failures = new ArrayList<>();
+		for (ScaleMode mode : ScaleMode.values()) {
+			String name = mode.name().toLowerCase();
+			checkGolden("scaled/HEAD_FRONT-20-" + name, ImageScaler.scale(head, 20, 20, mode), failures);
+			checkGolden("scaled/HEAD_FRONT-5-" + name, ImageScaler.scale(head, 5, 5, mode), failures);
+		}
+		assertNoFailures(failures);
+	}
+	
+	@Test
+	public void testEnlargedPartsReplicatePixels() {
+		SkinTexture texture = skin.load();
+		for (SkinPart part : SkinPart.values()) {
+			BufferedImage original = MinecraftSkinUtil.getSkinPart(texture, part, 1);
+			for (int size : new int[] { 2, 3, 8 }) {
+				BufferedImage enlarged = MinecraftSkinUtil.getSkinPart(texture, part, size);
+				assertReplicated(part + " at size " + size, original, enlarged, size);
+			}
+		}
+	}
+	
+	@Test
+	public void testEnlargedPositionsReplicatePixels() {
+		SkinTexture texture = skin.load();
+		for (DefaultSkinPosition position : DefaultSkinPosition.values()) {
+			BufferedImage original = MinecraftSkinUtil.getSkinPosition(texture, position, 1);
+			BufferedImage enlarged = MinecraftSkinUtil.getSkinPosition(texture, position, 5);
+			assertReplicated(position + " at size 5", original, enlarged, 5);
+		}
+	}
+	
+	@Test
+	public void testRenderingDoesNotModifyTexture() {
+		SkinTexture texture = skin.load();
+		int[] before = TestSkin.getPixels(texture.getImage());
+		for (SkinPart part : SkinPart.values()) {
+			MinecraftSkinUtil.getSkinPart(texture, part, 2);
+		}
+		assertArrayEquals(before, TestSkin.getPixels(texture.getImage()));
+	}
+	
+	
+	private void checkGolden(String name, BufferedImage actual, List<String> failures) throws IOException {
+		File goldenFile = new File(skin.getGoldenDir(), name + ".png");
+		if (UPDATE_GOLDEN) {
+			goldenFile.getParentFile().mkdirs();
+			ImageIO.write(actual, "png", goldenFile);
+			return;
+		}
+		if (!goldenFile.isFile()) {
+			failures.add(name + ": missing golden image " + goldenFile);
+			return;
+		}
+		
+		BufferedImage golden = ImageIO.read(goldenFile);
+		if (golden.getWidth() != actual.getWidth() || golden.getHeight() != actual.getHeight()) {
+			failures.add(name + ": expected " + golden.getWidth() + "x" + golden.getHeight() + " but was " + actual.getWidth() + "x"
+					+ actual.getHeight());
+		} else if (!Arrays.equals(TestSkin.getPixels(golden), TestSkin.getPixels(actual))) {
+			// Keep the actual image next to the build output so it can be compared with the golden image
+			File actualFile = new File("target/golden-failures/" + skin.getGoldenDir().getName() + "/" + name + ".png");
+			actualFile.getParentFile().mkdirs();
+			ImageIO.write(actual, "png", actualFile);
+			failures.add(name + ": pixels differ from golden image, actual image written to " + actualFile);
+		}
+	}
+	
+	private static void assertNoFailures(List<String> failures) {
+		if (!failures.isEmpty()) {
+			fail(failures.size() + " images do not match:\n" + String.join("\n", failures));
+		}
+	}
+	
+	private static void assertReplicated(String message, BufferedImage original, BufferedImage enlarged, int size) {
+		assertEquals(message, original.getWidth() * size, enlarged.getWidth());
+		assertEquals(message, original.getHeight() * size, enlarged.getHeight());
+		for (int x = 0; x < enlarged.getWidth(); ++x) {
+			for (int y = 0; y < enlarged.getHeight(); ++y) {
+				int expected = original.getRGB(x / size, y / size);
+				if (expected != enlarged.getRGB(x, y)) {
+					fail(message + " differs at [" + x + ", " + y + "]");
+				}
+			}
+		}
+	}
+	
+}
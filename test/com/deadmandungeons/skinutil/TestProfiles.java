@@ -0,0 +1,55 @@
+package com.deadmandungeons.skinutil;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import com.mojang.api.profiles.minecraft.MinecraftProfile;
+import com.mojang.api.profiles.minecraft.MinecraftProfile.Skin;
+
+
+/**
+ * Creates stub Minecraft profiles for tests, since real profiles can only be retrieved from the Mojang API.
+ * The stubs do not record their invocations, so a single profile can be shared by many threads in load tests.
+ * @author Jon
+ */
+public final class TestProfiles {
+	
+	private TestProfiles() {}
+	
+	/**
+	 * @param id - The unique ID of the player
+	 * @param skinUrl - The URL of the player's skin texture, or <code>null</code> if the player has no skin
+	 * @param slim - Whether or not the player's skin is for the slim skin model type
+	 * @return a stub MinecraftProfile of a player with the given skin
+	 */
+	public static MinecraftProfile create(UUID id, String skinUrl, boolean slim) {
+		MinecraftProfile profile = mock(MinecraftProfile.class, withSettings().stubOnly());
+		doReturn(id).when(profile).getId();
+		// The textures type is found from its getter since only its methods are used by MinecraftSkinUtil
+		doReturn(mock(getTexturesType(), withSettings().stubOnly())).when(profile).getTextures();
+		if (skinUrl != null) {
+			Skin skin = mock(Skin.class, withSettings().stubOnly());
+			when(skin.getUrl()).thenReturn(skinUrl);
+			when(skin.isSlimModel()).thenReturn(slim);
+			when(profile.getTextures().getSkin()).thenReturn(Optional.of(skin));
+		} else {
+			when(profile.getTextures().getSkin()).thenReturn(Optional.empty());
+		}
+		return profile;
+	}
+	
+	
+	private static Class<?> getTexturesType() {
+		try {
+			return MinecraftProfile.class.getMethod("getTextures").getReturnType();
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+}
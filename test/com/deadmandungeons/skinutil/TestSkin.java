@@ -0,0 +1,83 @@
+package com.deadmandungeons.skinutil;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import com.deadmandungeons.skinutil.MinecraftSkinUtil.SkinTexture;
+
+
+/**
+ * The skin textures used by the rendering tests, covering every texture layout the library supports.
+ * @author Jon
+ */
+enum TestSkin {
+	STEVE(MinecraftSkinUtil.class.getResource("/default-skins/steve.png"), false, true),
+	ALEX(MinecraftSkinUtil.class.getResource("/default-skins/alex.png"), true, true),
+	// 64x32 skin with some transparent dead areas so the head overlay is used
+	LEGACY(fixture("legacy.png"), false, false),
+	// 64x32 skin with fully opaque dead areas so the head overlay is ignored
+	LEGACY_OPAQUE(fixture("legacy-opaque.png"), false, false),
+	CUSTOM(fixture("custom.png"), false, false),
+	CUSTOM_SLIM(fixture("custom-slim.png"), true, false);
+	
+	// A constant so that it can be used while the enum constants are initialized
+	static final String TEST_DIR = "test";
+	
+	private final URL url;
+	private final boolean slim;
+	private final boolean defaultSkin;
+	
+	private TestSkin(URL url, boolean slim, boolean defaultSkin) {
+		this.url = url;
+		this.slim = slim;
+		this.defaultSkin = defaultSkin;
+	}
+	
+	/**
+	 * @return the URL of this skin's PNG texture
+	 */
+	URL getUrl() {
+		return url;
+	}
+	
+	boolean isSlim() {
+		return slim;
+	}
+	
+	/**
+	 * @return a new SkinTexture read from this skin's PNG texture
+	 */
+	SkinTexture load() {
+		try {
+			return new SkinTexture(ImageIO.read(url), slim, defaultSkin);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * @return the directory containing the golden images rendered from this skin
+	 */
+	File getGoldenDir() {
+		return new File(TEST_DIR, "golden/" + name().toLowerCase().replace('_', '-'));
+	}
+	
+	
+	static int[] getPixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+	
+	private static URL fixture(String name) {
+		try {
+			return new File(TEST_DIR, "textures/" + name).toURI().toURL();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+}
@@ -0,0 +1,261 @@
+package com.deadmandungeons.skinutil.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.deadmandungeons.skinutil.TestProfiles;
+
+
+/**
+ * Starts a {@link SkinAvatarServer} on a free port with a stub {@link ProfileLookup} and checks its responses.
+ * @author Jon
+ */
+public class SkinAvatarServerTest {
+	
+	private static final UUID CUSTOM_ID = new UUID(0, 2);
+	private static final UUID SLIM_ID = new UUID(0, 4);
+	// UUIDs with an even hashcode use the Steve default skin, and odd hashcodes use Alex
+	private static final UUID STEVE_ID = new UUID(0, 6);
+	private static final UUID ALEX_ID = new UUID(0, 7);
+	private static final UUID DOWNLOAD_ID = new UUID(0, 8);
+	private static final UUID UNKNOWN_ID = new UUID(0, 404);
+	private static final UUID FAILING_ID = new UUID(0, 502);
+	
+	private static final String CUSTOM_ETAG = "\"hash123abc\"";
+	
+	private Path textureDir;
+	private SkinAvatarServer server;
+	private String baseUrl;
+	
+	@Before
+	public void startServer() throws IOException {
+		textureDir = Files.createTempDirectory("skin-textures");
+		Files.copy(texture("custom.png"), textureDir.resolve("hash123abc"));
+		Files.copy(texture("custom-slim.png"), textureDir.resolve("slimhash"));
+		
+		ProfileLookup lookup = (id) -> {
+			if (id.equals(CUSTOM_ID)) {
+				return TestProfiles.create(id, textureUrl("hash123abc"), false);
+			} else if (id.equals(SLIM_ID)) {
+				return TestProfiles.create(id, textureUrl("slimhash"), true);
+			} else if (id.equals(DOWNLOAD_ID)) {
+				return TestProfiles.create(id, textureUrl("downloadhash"), false);
+			} else if (id.equals(STEVE_ID) || id.equals(ALEX_ID)) {
+				return TestProfiles.create(id, null, false);
+			} else if (id.equals(FAILING_ID)) {
+				throw new IOException("lookup failed");
+			}
+			return null;
+		};
+		server = new SkinAvatarServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), lookup, 2, 16, 300);
+		server.start();
+		baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+	
+	@After
+	public void stopServer() throws IOException {
+		server.stop(0);
+		for (File file : textureDir.toFile().listFiles()) {
+			file.delete();
+		}
+		Files.delete(textureDir);
+	}
+	
+	@Test
+	public void testHead() throws IOException {
+		Response response = request("GET", "/head/" + CUSTOM_ID + "/20", null);
+		assertEquals(200, response.status);
+		assertEquals("image/png", response.connection.getHeaderField("Content-Type"));
+		assertEquals(CUSTOM_ETAG, response.connection.getHeaderField("ETag"));
+		assertEquals("public, max-age=300", response.connection.getHeaderField("Cache-Control"));
+		assertSize(response, 20, 20);
+		
+		// Mojang API style UUIDs without dashes are also accepted
+		Response undashed = request("GET", "/head/" + CUSTOM_ID.toString().replace("-", "") + "/20", null);
+		assertArrayEquals(response.body, undashed.body);
+	}
+	
+	@Test
+	public void testBody() throws IOException {
+		assertSize(request("GET", "/body/" + CUSTOM_ID + "/front/4", null), 16 * 4, 32 * 4);
+		assertSize(request("GET", "/body/" + SLIM_ID + "/front/4", null), 14 * 4, 32 * 4);
+		assertSize(request("GET", "/body/" + CUSTOM_ID + "/top/2", null), 16 * 2, 8 * 2);
+	}
+	
+	@Test
+	public void testBodyViewIgnoresDefaultLocale() throws IOException {
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			assertEquals(200, request("GET", "/body/" + CUSTOM_ID + "/RIGHT/8", null).status);
+			assertEquals(200, request("GET", "/body/" + CUSTOM_ID + "/right/8", null).status);
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+	
+	@Test
+	public void testNotModified() throws IOException {
+		String path = "/head/" + CUSTOM_ID + "/8";
+		for (String ifNoneMatch : new String[] { CUSTOM_ETAG, "W/" + CUSTOM_ETAG, "*", "\"other\", " + CUSTOM_ETAG }) {
+			Response response = request("GET", path, ifNoneMatch);
+			assertEquals(ifNoneMatch, 304, response.status);
+			assertEquals(CUSTOM_ETAG, response.connection.getHeaderField("ETag"));
+			assertEquals("public, max-age=300", response.connection.getHeaderField("Cache-Control"));
+		}
+		assertEquals(200, request("GET", path, "\"other\"").status);
+		assertEquals(200, request("GET", path, "\"steve\"").status);
+	}
+	
+	@Test
+	public void testNotFound() throws IOException {
+		String[] paths = { "/head/not-a-uuid/8", "/head/" + CUSTOM_ID + "/0", "/head/" + CUSTOM_ID + "/401", "/head/" + CUSTOM_ID + "/abc",
+				"/head/" + CUSTOM_ID, "/head/" + CUSTOM_ID + "/8/extra", "/body/" + CUSTOM_ID + "/side/8", "/body/" + CUSTOM_ID + "/front/0",
+				"/body/" + CUSTOM_ID + "/front/51", "/body/" + CUSTOM_ID + "/8", "/head/" + UNKNOWN_ID + "/8", "/other" };
+		for (String path : paths) {
+			assertEquals(path, 404, request("GET", path, null).status);
+		}
+	}
+	
+	@Test
+	public void testLookupFailure() throws IOException {
+		assertEquals(502, request("GET", "/head/" + FAILING_ID + "/8", null).status);
+	}
+	
+	@Test
+	public void testMethodNotAllowed() throws IOException {
+		Response response = request("POST", "/head/" + CUSTOM_ID + "/8", null);
+		assertEquals(405, response.status);
+		assertEquals("GET, HEAD", response.connection.getHeaderField("Allow"));
+	}
+	
+	@Test
+	public void testHeadRequest() throws IOException {
+		Response get = request("GET", "/body/" + CUSTOM_ID + "/back/3", null);
+		Response head = request("HEAD", "/body/" + CUSTOM_ID + "/back/3", null);
+		assertEquals(200, head.status);
+		assertEquals(Integer.toString(get.body.length), head.connection.getHeaderField("Content-Length"));
+		assertEquals(CUSTOM_ETAG, head.connection.getHeaderField("ETag"));
+		assertEquals(0, head.body.length);
+	}
+	
+	@Test
+	public void testCacheHit() throws IOException {
+		String path = "/head/" + CUSTOM_ID + "/16";
+		Response first = request("GET", path, null);
+		
+		// The texture of a hash never changes, so a cached image is served even though the file is now different
+		Files.copy(texture("legacy.png"), textureDir.resolve("hash123abc"), StandardCopyOption.REPLACE_EXISTING);
+		Response second = request("GET", path, null);
+		assertArrayEquals(first.body, second.body);
+		
+		Response otherSize = request("GET", "/head/" + CUSTOM_ID + "/17", null);
+		assertFalse(Arrays.equals(first.body, otherSize.body));
+	}
+	
+	@Test
+	public void testDefaultSkins() throws IOException {
+		Response steve = request("GET", "/head/" + STEVE_ID + "/8", null);
+		assertEquals("\"steve\"", steve.connection.getHeaderField("ETag"));
+		assertEquals("public, max-age=300", steve.connection.getHeaderField("Cache-Control"));
+		
+		Response alex = request("GET", "/head/" + ALEX_ID + "/8", null);
+		assertEquals("\"alex\"", alex.connection.getHeaderField("ETag"));
+		assertFalse(Arrays.equals(steve.body, alex.body));
+	}
+	
+	@Test
+	public void testFailedDownloadIsNotCached() throws IOException {
+		String path = "/head/" + DOWNLOAD_ID + "/64";
+		Response fallback = request("GET", path, null);
+		assertEquals(200, fallback.status);
+		assertEquals("\"steve\"", fallback.connection.getHeaderField("ETag"));
+		assertEquals("no-cache", fallback.connection.getHeaderField("Cache-Control"));
+		assertArrayEquals(request("GET", "/head/" + STEVE_ID + "/64", null).body, fallback.body);
+		
+		Files.copy(texture("custom.png"), textureDir.resolve("downloadhash"));
+		Response downloaded = request("GET", path, null);
+		assertEquals("\"downloadhash\"", downloaded.connection.getHeaderField("ETag"));
+		assertEquals("public, max-age=300", downloaded.connection.getHeaderField("Cache-Control"));
+		assertFalse(Arrays.equals(fallback.body, downloaded.body));
+		assertArrayEquals(request("GET", "/head/" + CUSTOM_ID + "/64", null).body, downloaded.body);
+	}
+	
+	
+	private static Path texture(String name) {
+		return new File("test/textures", name).toPath();
+	}
+	
+	private String textureUrl(String hash) {
+		return textureDir.resolve(hash).toUri().toString();
+	}
+	
+	private Response request(String method, String path, String ifNoneMatch) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestMethod(method);
+		if (ifNoneMatch != null) {
+			connection.setRequestProperty("If-None-Match", ifNoneMatch);
+		}
+		int status = connection.getResponseCode();
+		InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if (in != null) {
+			try {
+				byte[] buffer = new byte[8192];
+				for (int read; (read = in.read(buffer)) != -1;) {
+					body.write(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+		}
+		return new Response(connection, status, body.toByteArray());
+	}
+	
+	private static void assertSize(Response response, int width, int height) throws IOException {
+		assertEquals(200, response.status);
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(response.body));
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+	}
+	
+	
+	private static class Response {
+		
+		private final HttpURLConnection connection;
+		private final int status;
+		private final byte[] body;
+		
+		private Response(HttpURLConnection connection, int status, byte[] body) {
+			this.connection = connection;
+			this.status = status;
+			this.body = body;
+		}
+		
+	}
+	
+}